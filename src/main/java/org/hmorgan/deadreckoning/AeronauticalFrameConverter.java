@@ -0,0 +1,116 @@
+package org.hmorgan.deadreckoning;
+
+import org.hmorgan.deadreckoning.util.Geodetic;
+
+/**
+ * Incremental ECEF to aeronautical frame converter for a single entity, see {@link EntityState#toAeronauticalFrame()}.
+ *
+ * The converter remembers the geodetic position and NED frame of the last full solution (the anchor). While the
+ * entity stays within the rotation tolerance of the anchor, the new geodetic position is found by rotating the
+ * ECEF offset from the anchor into the anchor's NED frame, and the anchor's NED frame is reused for the vectors.
+ * Once the entity moves further, the geodetic position is solved again warm started from the anchor's latitude
+ * and the anchor is moved.
+ *
+ * The error introduced by reusing the anchor is roughly tolerance^2 / earth radius in position (about 0.2 micrometers
+ * for the default 1 m tolerance) and tolerance / earth radius in NED frame rotation.
+ *
+ * This implementation is considered thread-safe.
+ *
+ * @author Hunter N. Morgan
+ */
+public class AeronauticalFrameConverter {
+
+    private static final double DEFAULT_ROTATION_TOLERANCE = 1.0;  // m
+    private static final double MIN_COS_LAT = 1.0e-3;               // don't reuse the anchor this close to the poles
+
+    private final double rotationToleranceSq;
+
+    private boolean anchored;
+    private final double[] anchorEcef = new double[3];
+    private final double[] anchorLatLonAlt = new double[3];
+    private double sinLat;
+    private double cosLat;
+    private double sinLon;
+    private double cosLon;
+    private double meridionalRadius;    // M + h (m)
+    private double parallelRadius;      // (N + h) * cos(lat) (m)
+
+    public AeronauticalFrameConverter() {
+        this(DEFAULT_ROTATION_TOLERANCE);
+    }
+
+    /**
+     * @param rotationTolerance distance from the anchor within which the anchor's NED frame is reused (m), 0 always
+     *                          solves the geodetic position
+     */
+    public AeronauticalFrameConverter(double rotationTolerance) {
+        this.rotationToleranceSq = rotationTolerance*rotationTolerance;
+    }
+
+    /**
+     * Converts an ECEF state of this converter's entity to aeronautical frames
+     *
+     * @param state state in ECEF frame, e.g. the current dead reckoned state
+     * @return new {@link EntityState} in aeronautical frames, see {@link EntityState#toAeronauticalFrame()}
+     */
+    public EntityState toAeronauticalFrame(EntityState state) {
+        synchronized (this) {
+            final double[] location = state.getLocation();
+            final double dx = location[0] - anchorEcef[0];
+            final double dy = location[1] - anchorEcef[1];
+            final double dz = location[2] - anchorEcef[2];
+            final double[] latLonAlt = new double[3];
+
+            if(anchored && cosLat > MIN_COS_LAT && dx*dx + dy*dy + dz*dz <= rotationToleranceSq) {
+                // offset from the anchor in the anchor's NED frame
+                final double north = -sinLat*cosLon*dx - sinLat*sinLon*dy + cosLat*dz;
+                final double east = -sinLon*dx + cosLon*dy;
+                final double down = -cosLat*cosLon*dx - cosLat*sinLon*dy - sinLat*dz;
+
+                latLonAlt[0] = anchorLatLonAlt[0] + north / meridionalRadius;
+                latLonAlt[1] = wrapLongitude(anchorLatLonAlt[1] + east / parallelRadius);
+                latLonAlt[2] = anchorLatLonAlt[2] - down;
+            } else {
+                if(anchored) {
+                    Geodetic.ecefToGeodetic(location[0], location[1], location[2], anchorLatLonAlt[0], latLonAlt, 0);
+                } else {
+                    Geodetic.ecefToGeodetic(location[0], location[1], location[2], latLonAlt, 0);
+                }
+                anchor(location, latLonAlt);
+            }
+
+            return state.toAeronauticalFrame(latLonAlt, sinLat, cosLat, sinLon, cosLon);
+        }
+    }
+
+    /**
+     * Wraps a longitude that crossed the antimeridian back into (-pi, pi], the range {@link Geodetic} returns
+     */
+    private static double wrapLongitude(double lon) {
+        if(lon > Math.PI) {
+            return lon - 2.0*Math.PI;
+        } else if(lon <= -Math.PI) {
+            return lon + 2.0*Math.PI;
+        }
+        return lon;
+    }
+
+    private void anchor(double[] ecef, double[] latLonAlt) {
+        System.arraycopy(ecef, 0, anchorEcef, 0, 3);
+        System.arraycopy(latLonAlt, 0, anchorLatLonAlt, 0, 3);
+
+        sinLat = Math.sin(latLonAlt[0]);
+        cosLat = Math.cos(latLonAlt[0]);
+        sinLon = Math.sin(latLonAlt[1]);
+        cosLon = Math.cos(latLonAlt[1]);
+
+        // meridional and prime vertical radii of curvature
+        final double w = Math.sqrt(1.0 - Geodetic.E2*sinLat*sinLat);
+        final double N = Geodetic.A / w;
+        final double M = Geodetic.A * (1.0 - Geodetic.E2) / (w*w*w);
+        meridionalRadius = M + latLonAlt[2];
+        parallelRadius = (N + latLonAlt[2]) * cosLat;
+
+        anchored = true;
+    }
+}
@@ -21,4 +21,32 @@ public interface DeadReckoningAlgorithm {
      * @return the current dead reckoned state
      */
     EntityState getCurrentDeadReckonedState();
+
+    /**
+     * Calculates the dead reckoned position at several points in time in one call.
+     *
+     * Each time delta is the number of seconds since the last kinematic state update, so the result does not
+     * depend on the system clock. Use this when replaying or testing against known update times; use
+     * {@link #getPredictedPositions} for paths that line up with {@link #getCurrentDeadReckonedState()}.
+     * The positions are written interleaved (x0,y0,z0,x1,y1,z1,...), so positions must hold at least
+     * 3*timeDeltas.length elements. No objects are allocated.
+     *
+     * @param timeDeltas times since the last kinematic state update to dead reckon to (s)
+     * @param positions destination array for the ECEF positions (x,y,z) (m)
+     */
+    void getDeadReckonedPositions(double[] timeDeltas, double[] positions);
+
+    /**
+     * Calculates the dead reckoned position at several points in the future in one call, e.g. to draw a predicted
+     * path or feed a planner.
+     *
+     * Each time offset is the number of seconds from now. The clock is read once, the same way
+     * {@link #getCurrentDeadReckonedState()} reads it, so an offset of 0 gives the current dead reckoned position.
+     * The positions are written interleaved (x0,y0,z0,x1,y1,z1,...), so positions must hold at least
+     * 3*timeOffsets.length elements. No objects are allocated.
+     *
+     * @param timeOffsets times from now to dead reckon to (s)
+     * @param positions destination array for the ECEF positions (x,y,z) (m)
+     */
+    void getPredictedPositions(double[] timeOffsets, double[] positions);
 }
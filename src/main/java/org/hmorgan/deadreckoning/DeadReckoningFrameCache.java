@@ -0,0 +1,69 @@
+package org.hmorgan.deadreckoning;
+
+/**
+ * Wraps another {@link DeadReckoningAlgorithm} and memoizes its dead reckoned state for the current frame of a
+ * shared {@link FrameClock}.
+ *
+ * The first call to {@link #getCurrentDeadReckonedState()} in a frame evaluates the wrapped algorithm, later calls
+ * in the same frame return the same {@link EntityState} instance. The cached state is dropped when the frame clock
+ * advances or when a new kinematic state is received. Callers share the returned state, so it must not be modified.
+ *
+ * This implementation is considered thread-safe.
+ *
+ * @author Hunter N. Morgan
+ */
+public class DeadReckoningFrameCache implements DeadReckoningAlgorithm {
+
+    private static final long NO_FRAME = -1L;
+
+    private final DeadReckoningAlgorithm algorithm;
+    private final FrameClock frameClock;
+
+    private EntityState cachedState;
+    private long cachedFrame = NO_FRAME;
+
+    public DeadReckoningFrameCache(DeadReckoningAlgorithm algorithm, FrameClock frameClock) {
+        this.algorithm = algorithm;
+        this.frameClock = frameClock;
+    }
+
+    @Override
+    public void updateKinematicState(EntityState state) {
+        synchronized (this) {
+            algorithm.updateKinematicState(state);
+            cachedState = null;
+            cachedFrame = NO_FRAME;
+        }
+    }
+
+    @Override
+    public EntityState getCurrentDeadReckonedState() {
+        synchronized (this) {
+            final long frame = frameClock.getFrame();
+            if(cachedFrame != frame) {
+                cachedState = algorithm.getCurrentDeadReckonedState();
+                cachedFrame = frame;
+            }
+            return cachedState;
+        }
+    }
+
+    @Override
+    public void getDeadReckonedPositions(double[] timeDeltas, double[] positions) {
+        // already independent of the frame time, nothing to cache
+        algorithm.getDeadReckonedPositions(timeDeltas, positions);
+    }
+
+    @Override
+    public void getPredictedPositions(double[] timeOffsets, double[] positions) {
+        // reads the clock, so it is not tied to the frame
+        algorithm.getPredictedPositions(timeOffsets, positions);
+    }
+
+    /**
+     * @return the wrapped dead reckoning algorithm
+     */
+    public DeadReckoningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+}
@@ -1,5 +1,7 @@
 package org.hmorgan.deadreckoning;
 
+import java.util.Arrays;
+
 /**
  * #author Hunter N. Morgan
  */
@@ -19,4 +21,23 @@ public class DeadReckoningRVB implements DeadReckoningAlgorithm {
     public EntityState getCurrentDeadReckonedState() {
         return null;
     }
+
+    @Override
+    public void getDeadReckonedPositions(double[] timeDeltas, double[] positions) {
+        zeroPositions(timeDeltas, positions);
+    }
+
+    @Override
+    public void getPredictedPositions(double[] timeOffsets, double[] positions) {
+        zeroPositions(timeOffsets, positions);
+    }
+
+    private static void zeroPositions(double[] times, double[] positions) {
+        if(positions.length < 3*times.length) {
+            throw new IllegalArgumentException("positions must hold at least 3 elements per time");
+        }
+
+        // not implemented yet, behave as if no kinematic state has been received
+        Arrays.fill(positions, 0, 3*times.length, 0.0);
+    }
 }
@@ -2,6 +2,7 @@ package org.hmorgan.deadreckoning;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 
 /**
  * Implementation of the dead reckoning algorithm RVW as defined in IEEE 1278.1-1995 (DIS).
@@ -16,9 +17,9 @@ import java.time.Instant;
 public class DeadReckoningRVW implements DeadReckoningAlgorithm {
     private EntityState oldEntityState;
     private EntityState currentEntityState;
+    private KinematicCoefficients coefficients;
 
     private Instant timeLastUpdated;
-    private double timeDelta;
     private boolean useAccelerationDecay;
 
     private final double ACCELERATION_DECAY_INTERVAL = 5.0;
@@ -42,7 +43,7 @@ public class DeadReckoningRVW implements DeadReckoningAlgorithm {
                 currentEntityState = state;
             }
 
-            timeDelta = 0.0;
+            coefficients = new KinematicCoefficients(oldEntityState, currentEntityState);
             timeLastUpdated = Instant.now();
         }
     }
@@ -53,37 +54,19 @@ public class DeadReckoningRVW implements DeadReckoningAlgorithm {
                 return new EntityState();
             }
 
-            timeDelta = Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0;
-
-            final EntityState entityState = interpolateState(oldEntityState, currentEntityState);
-
-            // acceleration decay (decelleration?)
-            // this just artificially slows down time down to a halt over a period of time
-            // since the last state update
-            if(useAccelerationDecay) {
-                double interpFrac = (timeDelta / ACCELERATION_DECAY_INTERVAL);
-                if(interpFrac > 1.0)
-                    interpFrac = 1.0;
-                timeDelta = easeOutSine(timeLastUpdated.toEpochMilli(),
-                                        timeLastUpdated.toEpochMilli() + ACCELERATION_DECAY_INTERVAL*1000,
-                                        interpFrac);
-            }
+            final double timeDelta = Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0;
+            final double interpFrac = interpolationFraction(timeDelta);
+            final double drTime = decayedTime(timeDelta);
 
             // position dead reckoning
             // x(t) = x_0 + v_0*t + 0.5*a*t^2
-            final double[] drPosition = new double[] {
-                    entityState.getLocation()[0] + entityState.getLinearVelocity()[0]*timeDelta + 0.5*entityState.getLinearAcceleration()[0]*timeDelta*timeDelta,
-                    entityState.getLocation()[1] + entityState.getLinearVelocity()[1]*timeDelta + 0.5*entityState.getLinearAcceleration()[1]*timeDelta*timeDelta,
-                    entityState.getLocation()[2] + entityState.getLinearVelocity()[2]*timeDelta + 0.5*entityState.getLinearAcceleration()[2]*timeDelta*timeDelta
-            };
+            final double[] drPosition = new double[3];
+            coefficients.evaluatePosition(interpFrac, drTime, drPosition, 0);
 
             // orientation dead reckoning is simplified (not using the more complicated one in the DIS standard)
             // theta(t) = theta_0 + omega_0*t
-            final double[] drOrientation = new double[] {
-                    entityState.getOrientation()[0] + entityState.getAngularVelocity()[0]*timeDelta,
-                    entityState.getOrientation()[1] + entityState.getAngularVelocity()[1]*timeDelta,
-                    entityState.getOrientation()[2] + entityState.getAngularVelocity()[2]*timeDelta
-            };
+            final double[] drOrientation = new double[3];
+            coefficients.evaluateOrientation(interpFrac, drTime, drOrientation, 0);
 
             // not dead-reckoning linear velocity, linear acceleration, or angular velocity, so
             // the current state fields will be used in dead reckoned result
@@ -95,30 +78,54 @@ public class DeadReckoningRVW implements DeadReckoningAlgorithm {
         }
     }
 
-    private EntityState interpolateState(EntityState a, EntityState b) {
-        double interpFrac = (timeDelta / INTERPOLATION_INTERVAL);
-        if(interpFrac > 1.0)
-            interpFrac = 1.0;
+    public void getDeadReckonedPositions(double[] timeDeltas, double[] positions) {
+        evaluatePositions(timeDeltas, positions, false);
+    }
 
-        return new EntityState(linearInterpolate(a.getLocation(), b.getLocation(), interpFrac),
-                               linearInterpolate(a.getOrientation(), b.getOrientation(), interpFrac),
-                               linearInterpolate(a.getLinearVelocity(), b.getLinearVelocity(), interpFrac),
-                               linearInterpolate(a.getLinearAcceleration(), b.getLinearAcceleration(), interpFrac),
-                               linearInterpolate(a.getAngularVelocity(), b.getAngularVelocity(), interpFrac));
+    public void getPredictedPositions(double[] timeOffsets, double[] positions) {
+        evaluatePositions(timeOffsets, positions, true);
     }
 
-    private static double linearInterpolate(double a, double b, double x) {
-        return a + (b-a) * x;
+    private void evaluatePositions(double[] times, double[] positions, boolean fromNow) {
+        if(positions.length < 3*times.length) {
+            throw new IllegalArgumentException("positions must hold at least 3 elements per time");
+        }
+
+        synchronized (this) {
+            if(coefficients == null) {
+                Arrays.fill(positions, 0, 3*times.length, 0.0);
+                return;
+            }
+
+            // read the clock once, with the same resolution as getCurrentDeadReckonedState so offset 0 matches it
+            final double timeSinceUpdate = fromNow ? Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0 : 0.0;
+
+            for(int i = 0; i < times.length; i++) {
+                final double timeDelta = timeSinceUpdate + times[i];
+                coefficients.evaluatePosition(interpolationFraction(timeDelta), decayedTime(timeDelta), positions, i*3);
+            }
+        }
     }
 
-    private static double[] linearInterpolate(double[] a, double[] b, double x) {
-        double[] array = new double[a.length];
+    private double interpolationFraction(double timeDelta) {
+        final double interpFrac = timeDelta / INTERPOLATION_INTERVAL;
+        return interpFrac > 1.0 ? 1.0 : interpFrac;
+    }
 
-        for(int i = 0; i < a.length; i++) {
-            array[i] = linearInterpolate(a[i], b[i], x);
+    /**
+     * Acceleration decay (decelleration?)
+     * this just artificially slows down time down to a halt over a period of time
+     * since the last state update
+     */
+    private double decayedTime(double timeDelta) {
+        if(!useAccelerationDecay) {
+            return timeDelta;
         }
 
-        return array;
+        double interpFrac = (timeDelta / ACCELERATION_DECAY_INTERVAL);
+        if(interpFrac > 1.0)
+            interpFrac = 1.0;
+        return easeOutSine(0.0, ACCELERATION_DECAY_INTERVAL, interpFrac);
     }
 
     private static double easeOutSine(double a, double b, double f) {
@@ -2,6 +2,7 @@ package org.hmorgan.deadreckoning;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 
 /**
  * Implementation of a dead reckoning algorithm similar to {@link DeadReckoningRVW} but uses
@@ -25,9 +26,9 @@ public class DeadReckoningRVWCM implements DeadReckoningAlgorithm {
 
     private EntityState oldEntityState;
     private EntityState currentEntityState;
+    private KinematicCoefficients coefficients;
 
     private Instant timeLastUpdated;
-    private double timeDelta;
 
     private final double INTERPOLATION_INTERVAL = 1.0; // seconds to interpolate from old state to new state
 
@@ -45,7 +46,7 @@ public class DeadReckoningRVWCM implements DeadReckoningAlgorithm {
                 currentEntityState = state;
             }
 
-            timeDelta = 0.0;
+            coefficients = new KinematicCoefficients(oldEntityState, currentEntityState);
             timeLastUpdated = Instant.now();
         }
     }
@@ -56,25 +57,18 @@ public class DeadReckoningRVWCM implements DeadReckoningAlgorithm {
                 return new EntityState();
             }
 
-            timeDelta = Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0;
-
-            final EntityState entityState = interpolateState(oldEntityState, currentEntityState);
+            final double timeDelta = Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0;
+            final double interpFrac = interpolationFraction(timeDelta);
 
             // position dead reckoning
             // x(t) = x_0 + v_0*t + 0.5*a*t^2
-            final double[] drPosition = new double[] {
-                    entityState.getLocation()[0] + entityState.getLinearVelocity()[0]*timeDelta + 0.5*entityState.getLinearAcceleration()[0]*timeDelta*timeDelta,
-                    entityState.getLocation()[1] + entityState.getLinearVelocity()[1]*timeDelta + 0.5*entityState.getLinearAcceleration()[1]*timeDelta*timeDelta,
-                    entityState.getLocation()[2] + entityState.getLinearVelocity()[2]*timeDelta + 0.5*entityState.getLinearAcceleration()[2]*timeDelta*timeDelta
-            };
+            final double[] drPosition = new double[3];
+            coefficients.evaluatePosition(interpFrac, timeDelta, drPosition, 0);
 
             // orientation dead reckoning is simplified
             // theta(t) = theta_0 + omega_0*t
-            final double[] drOrientation = new double[] {
-                    entityState.getOrientation()[0] + entityState.getAngularVelocity()[0]*timeDelta,
-                    entityState.getOrientation()[1] + entityState.getAngularVelocity()[1]*timeDelta,
-                    entityState.getOrientation()[2] + entityState.getAngularVelocity()[2]*timeDelta
-            };
+            final double[] drOrientation = new double[3];
+            coefficients.evaluateOrientation(interpFrac, timeDelta, drOrientation, 0);
 
             // not dead-reckoning linear velocity, linear acceleration, or angular velocity, so
             // the current state fields will be used in dead reckoned result
@@ -86,30 +80,38 @@ public class DeadReckoningRVWCM implements DeadReckoningAlgorithm {
         }
     }
 
-    private EntityState interpolateState(EntityState a, EntityState b) {
-        double interpFrac = (timeDelta / INTERPOLATION_INTERVAL);
-        if(interpFrac > 1.0)
-            interpFrac = 1.0;
-
-        return new EntityState(linearInterpolate(a.getLocation(), b.getLocation(), interpFrac),
-                               linearInterpolate(a.getOrientation(), b.getOrientation(), interpFrac),
-                               linearInterpolate(a.getLinearVelocity(), b.getLinearVelocity(), interpFrac),
-                               linearInterpolate(a.getLinearAcceleration(), b.getLinearAcceleration(), interpFrac),
-                               linearInterpolate(a.getAngularVelocity(), b.getAngularVelocity(), interpFrac));
+    public void getDeadReckonedPositions(double[] timeDeltas, double[] positions) {
+        evaluatePositions(timeDeltas, positions, false);
     }
 
-    private static double linearInterpolate(double a, double b, double x) {
-        return a + (b-a) * x;
+    public void getPredictedPositions(double[] timeOffsets, double[] positions) {
+        evaluatePositions(timeOffsets, positions, true);
     }
 
-    private static double[] linearInterpolate(double[] a, double[] b, double x) {
-        double[] array = new double[a.length];
+    private void evaluatePositions(double[] times, double[] positions, boolean fromNow) {
+        if(positions.length < 3*times.length) {
+            throw new IllegalArgumentException("positions must hold at least 3 elements per time");
+        }
 
-        for(int i = 0; i < a.length; i++) {
-            array[i] = linearInterpolate(a[i], b[i], x);
+        synchronized (this) {
+            if(coefficients == null) {
+                Arrays.fill(positions, 0, 3*times.length, 0.0);
+                return;
+            }
+
+            // read the clock once, with the same resolution as getCurrentDeadReckonedState so offset 0 matches it
+            final double timeSinceUpdate = fromNow ? Duration.between(timeLastUpdated, Instant.now()).toMillis() / 1000.0 : 0.0;
+
+            for(int i = 0; i < times.length; i++) {
+                final double timeDelta = timeSinceUpdate + times[i];
+                coefficients.evaluatePosition(interpolationFraction(timeDelta), timeDelta, positions, i*3);
+            }
         }
+    }
 
-        return array;
+    private double interpolationFraction(double timeDelta) {
+        final double interpFrac = timeDelta / INTERPOLATION_INTERVAL;
+        return interpFrac > 1.0 ? 1.0 : interpFrac;
     }
 //
 //    private static double catmullRomSplineInterpolate() {
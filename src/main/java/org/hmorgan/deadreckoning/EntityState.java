@@ -2,6 +2,7 @@ package org.hmorgan.deadreckoning;
 
 import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.hmorgan.deadreckoning.util.Geodetic;
 
 /**
  * Simple data structure representing an entity's state in ECEF frame
@@ -42,7 +43,7 @@ public class EntityState {
      * data. You must convert PROPER acceleration to BODY acceleration by subtracting free-fall acceleration
      * vector (0,0,-9.80665) from proper acceleration vector)
      *
-     * @param latLonAlt position vector of entity in WGS84 (latitude in DD, longitude in DD, altitude in m above WGS84 ellipsoid)
+     * @param latLonAlt position vector of entity in WGS84 (latitude in radians, longitude in radians, altitude in m above WGS84 ellipsoid)
      * @param orientationNed orientation/attitude vector of entity in NED frame (radians/s)
      * @param linearVelocityNed linear velocity vector of entity in NED frame (velocity north, velocity east, velocity down) (m/s)
      * @param linearAccelerationBody linear acceleration vector of entity in NED frame (x,y,z) (m/s^2)
@@ -62,45 +63,14 @@ public class EntityState {
         final double pitch = orientationNed[1];
         final double yaw = orientationNed[2];
 
-        // convert latLonAlt to ECEF
-
-        //% WGS84 ellipsoid constants:
-//        a = 6378137;
-//        e = 8.1819190842622e-2;
-//
-//        % intermediate calculation
-//        % (prime vertical radius of curvature)
-//        N = a ./ sqrt(1 - e^2 .* sin(lat).^2);
-//
-//        % results:
-//        x = (N+alt) .* cos(lat) .* cos(lon);
-//        y = (N+alt) .* cos(lat) .* sin(lon);
-//        z = ((1-e^2) .* N + alt) .* sin(lat);
-//        % Source: "Department of Defense World Geodetic System 1984"
-//        %         Page 4-4
-//        %         National Imagery and Mapping Agency
-//        %         Last updated June, 2004
-//        %         NIMA TR8350.2
-
-        // assuming latLonAlt is WGS84
-
-        // WGS84 ellipsoid constants
-        final double a = 6378137;
-        final double e = 8.1819190842622e-2;
-
-        // prime vertical radius of curvature
+        // convert latLonAlt (assumed WGS84) to ECEF
+        final double[] position = new double[3];
+        Geodetic.geodeticToEcef(lat, lon, alt, position, 0);
+
         final double cosLat = Math.cos(lat);
         final double cosLon = Math.cos(lon);
         final double sinLat = Math.sin(lat);
         final double sinLon = Math.sin(lon);
-        final double N = a / Math.sqrt(1.0 - e*e * sinLat*sinLat);
-
-        // ECEF position
-        final double[] position = new double[] {
-                (N+alt) * cosLat * cosLon,
-                (N+alt) * cosLat * sinLon,
-                ((1.0-e*e) * N + alt) * sinLat
-        };
 
         // BODY to NED rotation matrix
         final double cosR = Math.cos(roll);
@@ -118,11 +88,11 @@ public class EntityState {
         final RealMatrix bodyToNed = MatrixUtils.createRealMatrix(bodyToNedArray);
 
 
-        // NED to ECEF rotation matrix
+        // NED to ECEF rotation matrix (columns are the north, east and down unit vectors in ECEF)
         final double[][] nedToEcefArray = {
-                {-sinLat*cosLon,  -sinLat*sinLon,  cosLat},
-                {-sinLon,         cosLon,          0.0},
-                {-cosLat*cosLon,  -cosLat*sinLon,  -sinLat}
+                {-sinLat*cosLon,  -sinLon,  -cosLat*cosLon},
+                {-sinLat*sinLon,  cosLon,   -cosLat*sinLon},
+                {cosLat,          0.0,      -sinLat}
         };
         final RealMatrix nedToEcef = MatrixUtils.createRealMatrix(nedToEcefArray);
 
@@ -147,12 +117,83 @@ public class EntityState {
     }
 
     /**
-     * Returns an instance of {@link EntityState} where all fields are in common aeronautical frames.
+     * Returns an instance of {@link EntityState} where all fields are in common aeronautical frames. This is the
+     * inverse of {@link #fromAeronauticalFrame}:
+     * location is WGS84 (latitude in radians, longitude in radians, altitude in m above WGS84 ellipsoid),
+     * orientation and linear velocity are in NED frame, linear acceleration and angular velocity are in BODY frame.
+     * <p>
+     * Use an {@link AeronauticalFrameConverter} per entity when converting the same entity every frame.
      *
-     * @return
+     * @return new {@link EntityState} in aeronautical frames
      */
     public EntityState toAeronauticalFrame() {
-        return new EntityState();
+        final double[] latLonAlt = new double[3];
+        Geodetic.ecefToGeodetic(location[0], location[1], location[2], latLonAlt, 0);
+
+        final double lat = latLonAlt[0];
+        final double lon = latLonAlt[1];
+        return toAeronauticalFrame(latLonAlt, Math.sin(lat), Math.cos(lat), Math.sin(lon), Math.cos(lon));
+    }
+
+    /**
+     * Rotates this state's vectors into aeronautical frames using an already known geodetic position and NED frame
+     *
+     * @param latLonAlt geodetic position of this state, used as the returned location
+     * @param sinLat sine of the latitude defining the NED frame
+     * @param cosLat cosine of the latitude defining the NED frame
+     * @param sinLon sine of the longitude defining the NED frame
+     * @param cosLon cosine of the longitude defining the NED frame
+     * @return new {@link EntityState} in aeronautical frames
+     */
+    EntityState toAeronauticalFrame(double[] latLonAlt, double sinLat, double cosLat, double sinLon, double cosLon) {
+        // ECEF to NED rotation (transpose of NED to ECEF), written straight into the result arrays
+        final double[] orientationNed = new double[3];
+        final double[] linearVelocityNed = new double[3];
+        final double[] linearAccelerationBody = new double[3];
+        final double[] angularVelocityBody = new double[3];
+        ecefToNed(orientation, orientationNed, sinLat, cosLat, sinLon, cosLon);
+        ecefToNed(linearVelocity, linearVelocityNed, sinLat, cosLat, sinLon, cosLon);
+        ecefToNed(linearAcceleration, linearAccelerationBody, sinLat, cosLat, sinLon, cosLon);
+        ecefToNed(angularVelocity, angularVelocityBody, sinLat, cosLat, sinLon, cosLon);
+
+        // NED to BODY rotation (transpose of BODY to NED), applied in place
+        final double cosR = Math.cos(orientationNed[0]);
+        final double sinR = Math.sin(orientationNed[0]);
+        final double cosP = Math.cos(orientationNed[1]);
+        final double sinP = Math.sin(orientationNed[1]);
+        final double cosY = Math.cos(orientationNed[2]);
+        final double sinY = Math.sin(orientationNed[2]);
+        final double m00 = cosY*cosP;
+        final double m01 = sinY*cosP;
+        final double m02 = -sinP;
+        final double m10 = -sinY*cosR + cosY*sinP*sinR;
+        final double m11 = cosY*cosR + sinY*sinP*sinR;
+        final double m12 = cosP*sinR;
+        final double m20 = sinY*sinR + cosY*sinP*cosR;
+        final double m21 = -cosY*sinR + sinY*sinP*cosR;
+        final double m22 = cosP*cosR;
+
+        double n = linearAccelerationBody[0];
+        double e = linearAccelerationBody[1];
+        double d = linearAccelerationBody[2];
+        linearAccelerationBody[0] = m00*n + m01*e + m02*d;
+        linearAccelerationBody[1] = m10*n + m11*e + m12*d;
+        linearAccelerationBody[2] = m20*n + m21*e + m22*d;
+
+        n = angularVelocityBody[0];
+        e = angularVelocityBody[1];
+        d = angularVelocityBody[2];
+        angularVelocityBody[0] = m00*n + m01*e + m02*d;
+        angularVelocityBody[1] = m10*n + m11*e + m12*d;
+        angularVelocityBody[2] = m20*n + m21*e + m22*d;
+
+        return new EntityState(latLonAlt, orientationNed, linearVelocityNed, linearAccelerationBody, angularVelocityBody);
+    }
+
+    private static void ecefToNed(double[] v, double[] ned, double sinLat, double cosLat, double sinLon, double cosLon) {
+        ned[0] = -sinLat*cosLon*v[0] - sinLat*sinLon*v[1] + cosLat*v[2];
+        ned[1] = -sinLon*v[0] + cosLon*v[1];
+        ned[2] = -cosLat*cosLon*v[0] - cosLat*sinLon*v[1] - sinLat*v[2];
     }
 
     public double[] getLocation() {
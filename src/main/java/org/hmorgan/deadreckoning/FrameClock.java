@@ -0,0 +1,34 @@
+package org.hmorgan.deadreckoning;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Frame counter shared by a set of {@link DeadReckoningFrameCache} instances.
+ *
+ * Advancing the clock just increments a counter, so it costs nothing per entity. Each cache compares the frame
+ * number it cached its result for against the current frame number to know when its result is stale.
+ *
+ * This implementation is considered thread-safe.
+ *
+ * @author Hunter N. Morgan
+ */
+public class FrameClock {
+
+    private final AtomicLong frame = new AtomicLong();
+
+    /**
+     * Starts a new frame, invalidating the cached results of every {@link DeadReckoningFrameCache} using this clock
+     *
+     * @return the new frame number
+     */
+    public long advance() {
+        return frame.incrementAndGet();
+    }
+
+    /**
+     * @return the current frame number
+     */
+    public long getFrame() {
+        return frame.get();
+    }
+}
@@ -0,0 +1,100 @@
+package org.hmorgan.deadreckoning;
+
+/**
+ * Per-update extrapolation coefficients shared by the world-referenced dead reckoning algorithms.
+ *
+ * The dead reckoned position is the kinematic polynomial of the blended state
+ * x(f,t) = x(f) + v(f)*t + 0.5*a(f)*t^2, where each term is linearly blended from the old state to the
+ * current state by the interpolation fraction f. Regrouping by f gives
+ * x(f,t) = (x_0 + t*(v_0 + 0.5*a_0*t)) + f*(dx + t*(dv + 0.5*da*t)), so the coefficients can be computed
+ * once per kinematic state update and every sample afterwards is only a couple of Horner evaluations per axis.
+ *
+ * Instances are immutable once constructed.
+ *
+ * @author Hunter N. Morgan
+ */
+final class KinematicCoefficients {
+
+    // position coefficients per axis, laid out as {c0, c1, c2} for x, y then z
+    private final double[] positionBase = new double[9];    // old state: x_0, v_0, 0.5*a_0
+    private final double[] positionDelta = new double[9];   // current - old: dx, dv, 0.5*da
+    private final double[] positionTarget = new double[9];  // current state: x_1, v_1, 0.5*a_1
+
+    // orientation coefficients per axis, laid out as {c0, c1} for roll, pitch then yaw
+    private final double[] orientationBase = new double[6];    // old state: theta_0, omega_0
+    private final double[] orientationDelta = new double[6];   // current - old: dtheta, domega
+    private final double[] orientationTarget = new double[6];  // current state: theta_1, omega_1
+
+    KinematicCoefficients(EntityState oldState, EntityState currentState) {
+        for(int i = 0; i < 3; i++) {
+            final int p = i*3;
+            positionBase[p]     = oldState.getLocation()[i];
+            positionBase[p+1]   = oldState.getLinearVelocity()[i];
+            positionBase[p+2]   = 0.5*oldState.getLinearAcceleration()[i];
+            positionTarget[p]   = currentState.getLocation()[i];
+            positionTarget[p+1] = currentState.getLinearVelocity()[i];
+            positionTarget[p+2] = 0.5*currentState.getLinearAcceleration()[i];
+
+            final int o = i*2;
+            orientationBase[o]     = oldState.getOrientation()[i];
+            orientationBase[o+1]   = oldState.getAngularVelocity()[i];
+            orientationTarget[o]   = currentState.getOrientation()[i];
+            orientationTarget[o+1] = currentState.getAngularVelocity()[i];
+        }
+
+        for(int i = 0; i < 9; i++) {
+            positionDelta[i] = positionTarget[i] - positionBase[i];
+        }
+        for(int i = 0; i < 6; i++) {
+            orientationDelta[i] = orientationTarget[i] - orientationBase[i];
+        }
+    }
+
+    /**
+     * Evaluates the dead reckoned position (x,y,z) and writes it into out starting at offset
+     *
+     * @param interpFrac interpolation fraction from the old state to the current state, in domain [0,1]
+     * @param t dead reckoning time (s)
+     * @param out destination array
+     * @param offset index of the x component in out
+     */
+    void evaluatePosition(double interpFrac, double t, double[] out, int offset) {
+        final double[] b = positionBase;
+        final double[] d = positionDelta;
+        final double[] c = positionTarget;
+
+        if(interpFrac >= 1.0) {
+            out[offset]   = c[0] + t*(c[1] + c[2]*t);
+            out[offset+1] = c[3] + t*(c[4] + c[5]*t);
+            out[offset+2] = c[6] + t*(c[7] + c[8]*t);
+        } else {
+            out[offset]   = b[0] + t*(b[1] + b[2]*t) + interpFrac*(d[0] + t*(d[1] + d[2]*t));
+            out[offset+1] = b[3] + t*(b[4] + b[5]*t) + interpFrac*(d[3] + t*(d[4] + d[5]*t));
+            out[offset+2] = b[6] + t*(b[7] + b[8]*t) + interpFrac*(d[6] + t*(d[7] + d[8]*t));
+        }
+    }
+
+    /**
+     * Evaluates the dead reckoned orientation (roll, pitch, yaw) and writes it into out starting at offset
+     *
+     * @param interpFrac interpolation fraction from the old state to the current state, in domain [0,1]
+     * @param t dead reckoning time (s)
+     * @param out destination array
+     * @param offset index of the roll component in out
+     */
+    void evaluateOrientation(double interpFrac, double t, double[] out, int offset) {
+        final double[] b = orientationBase;
+        final double[] d = orientationDelta;
+        final double[] c = orientationTarget;
+
+        if(interpFrac >= 1.0) {
+            out[offset]   = c[0] + c[1]*t;
+            out[offset+1] = c[2] + c[3]*t;
+            out[offset+2] = c[4] + c[5]*t;
+        } else {
+            out[offset]   = b[0] + b[1]*t + interpFrac*(d[0] + d[1]*t);
+            out[offset+1] = b[2] + b[3]*t + interpFrac*(d[2] + d[3]*t);
+            out[offset+2] = b[4] + b[5]*t + interpFrac*(d[4] + d[5]*t);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.hmorgan.deadreckoning.util;
+
+
+/**
+ * Collection of static WGS84 geodetic (latitude, longitude, altitude) and ECEF conversion functions
+ *
+ * Latitude and longitude are in radians, altitude is in m above the WGS84 ellipsoid. None of these functions
+ * allocate, so they can be used on every entity every frame.
+ *
+ * @see "Department of Defense World Geodetic System 1984, NIMA TR8350.2"
+ */
+public class Geodetic {
+
+    // WGS84 ellipsoid constants
+    public static final double A = 6378137.0;                   // semi-major axis (m)
+    public static final double E = 8.1819190842622e-2;          // first eccentricity
+    public static final double E2 = E*E;                        // first eccentricity squared
+    public static final double B = A*Math.sqrt(1.0 - E2);       // semi-minor axis (m)
+    public static final double EP2 = (A*A - B*B) / (B*B);       // second eccentricity squared
+
+    private static final int MAX_BOWRING_ITERATIONS = 4;
+    private static final double BOWRING_TOLERANCE = 1.0e-12;    // radians, about 6 micrometers on the ground
+
+    /**
+     * Converts WGS84 geodetic coordinates to ECEF
+     *
+     * @param lat latitude (radians)
+     * @param lon longitude (radians)
+     * @param alt altitude above the WGS84 ellipsoid (m)
+     * @param ecef destination array for the ECEF position (x,y,z) (m)
+     * @param offset index of x in ecef
+     */
+    public static void geodeticToEcef(double lat, double lon, double alt, double[] ecef, int offset) {
+        final double cosLat = Math.cos(lat);
+        final double sinLat = Math.sin(lat);
+
+        // prime vertical radius of curvature
+        final double N = A / Math.sqrt(1.0 - E2 * sinLat*sinLat);
+
+        ecef[offset]   = (N+alt) * cosLat * Math.cos(lon);
+        ecef[offset+1] = (N+alt) * cosLat * Math.sin(lon);
+        ecef[offset+2] = ((1.0-E2) * N + alt) * sinLat;
+    }
+
+    /**
+     * Converts an ECEF position to WGS84 geodetic coordinates using Heikkinen's closed form solution
+     *
+     * @param x ECEF x (m)
+     * @param y ECEF y (m)
+     * @param z ECEF z (m)
+     * @param latLonAlt destination array for (latitude (radians), longitude (radians), altitude (m))
+     * @param offset index of latitude in latLonAlt
+     * @see "Heikkinen, M. (1982). Geschlossene Formeln zur Berechnung raeumlicher geodaetischer Koordinaten aus
+     *       rechtwinkligen Koordinaten. Zeitschrift fuer Vermessungswesen 107, 207-211"
+     */
+    public static void ecefToGeodetic(double x, double y, double z, double[] latLonAlt, int offset) {
+        final double p2 = x*x + y*y;
+        final double p = Math.sqrt(p2);
+        final double z2 = z*z;
+
+        final double F = 54.0 * B*B * z2;
+        final double G = p2 + (1.0-E2)*z2 - E2*(A*A - B*B);
+        final double c = E2*E2 * F * p2 / (G*G*G);
+        final double s = Math.cbrt(1.0 + c + Math.sqrt(c*c + 2.0*c));
+        final double k = s + 1.0 + 1.0/s;
+        final double P = F / (3.0 * k*k * G*G);
+        final double Q = Math.sqrt(1.0 + 2.0*E2*E2*P);
+        final double r0 = -(P*E2*p) / (1.0+Q)
+                          + Math.sqrt(0.5*A*A*(1.0 + 1.0/Q) - P*(1.0-E2)*z2 / (Q*(1.0+Q)) - 0.5*P*p2);
+        final double pe = p - E2*r0;
+        final double U = Math.sqrt(pe*pe + z2);
+        final double V = Math.sqrt(pe*pe + (1.0-E2)*z2);
+        final double z0 = B*B * z / (A*V);
+
+        latLonAlt[offset]   = Math.atan2(z + EP2*z0, p);
+        latLonAlt[offset+1] = Math.atan2(y, x);
+        latLonAlt[offset+2] = U * (1.0 - B*B / (A*V));
+    }
+
+    /**
+     * Converts an ECEF position to WGS84 geodetic coordinates warm started from a nearby latitude, e.g. the
+     * entity's latitude in the previous frame. This iterates Bowring's method until the latitude converges, which
+     * takes one or two iterations when the guess is within a few meters of the solution.
+     *
+     * @param x ECEF x (m)
+     * @param y ECEF y (m)
+     * @param z ECEF z (m)
+     * @param latGuess latitude near the solution (radians)
+     * @param latLonAlt destination array for (latitude (radians), longitude (radians), altitude (m))
+     * @param offset index of latitude in latLonAlt
+     * @see "Bowring, B. R. (1976). Transformation from spatial to geographical coordinates. Survey Review 23(181)"
+     */
+    public static void ecefToGeodetic(double x, double y, double z, double latGuess, double[] latLonAlt, int offset) {
+        final double p = Math.sqrt(x*x + y*y);
+
+        double sinLat = Math.sin(latGuess);
+        double cosLat = Math.cos(latGuess);
+        for(int i = 0; i < MAX_BOWRING_ITERATIONS; i++) {
+            // reduced latitude, tan(beta) = (b/a)*tan(lat)
+            final double betaY = B*sinLat;
+            final double betaX = A*cosLat;
+            final double betaR = Math.sqrt(betaX*betaX + betaY*betaY);
+            final double sinBeta = betaY / betaR;
+            final double cosBeta = betaX / betaR;
+
+            final double latY = z + EP2*B*sinBeta*sinBeta*sinBeta;
+            final double latX = p - E2*A*cosBeta*cosBeta*cosBeta;
+            final double latR = Math.sqrt(latX*latX + latY*latY);
+            final double nextSinLat = latY / latR;
+            final double nextCosLat = latX / latR;
+
+            // sine of the latitude change
+            final double change = Math.abs(nextSinLat*cosLat - nextCosLat*sinLat);
+            sinLat = nextSinLat;
+            cosLat = nextCosLat;
+            if(change < BOWRING_TOLERANCE) {
+                break;
+            }
+        }
+
+        latLonAlt[offset]   = Math.atan2(sinLat, cosLat);
+        latLonAlt[offset+1] = Math.atan2(y, x);
+        latLonAlt[offset+2] = p*cosLat + z*sinLat - A*Math.sqrt(1.0 - E2*sinLat*sinLat);
+    }
+
+    /**
+     * Converts a batch of ECEF positions to WGS84 geodetic coordinates
+     *
+     * Both arrays are interleaved, (x0,y0,z0,x1,y1,z1,...) and (lat0,lon0,alt0,lat1,lon1,alt1,...).
+     *
+     * @param ecef ECEF positions (m)
+     * @param latLonAlt destination array for the geodetic positions
+     * @param count number of positions to convert
+     */
+    public static void ecefToGeodetic(double[] ecef, double[] latLonAlt, int count) {
+        for(int i = 0; i < count*3; i += 3) {
+            ecefToGeodetic(ecef[i], ecef[i+1], ecef[i+2], latLonAlt, i);
+        }
+    }
+
+    /**
+     * Converts a batch of ECEF positions to WGS84 geodetic coordinates, warm starting each one from the geodetic
+     * position already in latLonAlt (typically the previous frame's result, which is overwritten). Entries whose
+     * previous latitude is NaN are solved with the closed form solution instead.
+     *
+     * @param ecef ECEF positions (m), interleaved (x0,y0,z0,x1,y1,z1,...)
+     * @param latLonAlt previous geodetic positions, replaced by the new ones, interleaved (lat0,lon0,alt0,...)
+     * @param count number of positions to convert
+     */
+    public static void ecefToGeodeticIncremental(double[] ecef, double[] latLonAlt, int count) {
+        for(int i = 0; i < count*3; i += 3) {
+            final double latGuess = latLonAlt[i];
+            if(Double.isNaN(latGuess)) {
+                ecefToGeodetic(ecef[i], ecef[i+1], ecef[i+2], latLonAlt, i);
+            } else {
+                ecefToGeodetic(ecef[i], ecef[i+1], ecef[i+2], latGuess, latLonAlt, i);
+            }
+        }
+    }
+
+    /**
+     * Rotates a batch of ECEF vectors (e.g. velocities) into the local NED frame at each geodetic position
+     *
+     * All arrays are interleaved (3 elements per entry).
+     *
+     * @param latLonAlt geodetic positions defining each NED frame
+     * @param ecef ECEF vectors
+     * @param ned destination array for the NED vectors
+     * @param count number of vectors to rotate
+     */
+    public static void ecefToNed(double[] latLonAlt, double[] ecef, double[] ned, int count) {
+        for(int i = 0; i < count*3; i += 3) {
+            final double sinLat = Math.sin(latLonAlt[i]);
+            final double cosLat = Math.cos(latLonAlt[i]);
+            final double sinLon = Math.sin(latLonAlt[i+1]);
+            final double cosLon = Math.cos(latLonAlt[i+1]);
+            final double x = ecef[i];
+            final double y = ecef[i+1];
+            final double z = ecef[i+2];
+
+            ned[i]   = -sinLat*cosLon*x - sinLat*sinLon*y + cosLat*z;
+            ned[i+1] = -sinLon*x + cosLon*y;
+            ned[i+2] = -cosLat*cosLon*x - cosLat*sinLon*y - sinLat*z;
+        }
+    }
+}
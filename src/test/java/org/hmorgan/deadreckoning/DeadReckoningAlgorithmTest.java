@@ -0,0 +1,133 @@
+package org.hmorgan.deadreckoning;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadReckoningAlgorithmTest {
+
+    private static final double EPSILON = 0.000001;
+
+    private static EntityState oldState() {
+        return new EntityState(new double[] {0.0, 0.0, 0.0},
+                               new double[] {0.0, 0.0, 0.0},
+                               new double[] {10.0, 0.0, 0.0},
+                               new double[] {0.0, 0.0, 0.0},
+                               new double[] {0.0, 0.0, 0.0});
+    }
+
+    private static EntityState newState() {
+        return new EntityState(new double[] {5.0, 0.0, 0.0},
+                               new double[] {0.0, 0.0, 1.0},
+                               new double[] {20.0, 0.0, 0.0},
+                               new double[] {0.0, 2.0, 0.0},
+                               new double[] {0.0, 0.0, 0.1});
+    }
+
+    @Nested
+    @DisplayName("test getDeadReckonedPositions")
+    class TestGetDeadReckonedPositions {
+        @Test
+        @DisplayName("should blend old and new state during the interpolation interval")
+        void testInterpolation() {
+            final DeadReckoningAlgorithm dr = new DeadReckoningRVWCM();
+            dr.updateKinematicState(oldState());
+            dr.updateKinematicState(newState());
+
+            final double[] positions = new double[6];
+            dr.getDeadReckonedPositions(new double[] {0.0, 0.5}, positions);
+
+            // t = 0 is the old state
+            assertArrayEquals(new double[] {0.0, 0.0, 0.0}, new double[] {positions[0], positions[1], positions[2]}, EPSILON);
+
+            // t = 0.5 uses the halfway blended state x = 2.5, v = 15, a = 1
+            assertEquals(2.5 + 15.0*0.5, positions[3], EPSILON);
+            assertEquals(0.5*1.0*0.5*0.5, positions[4], EPSILON);
+            assertEquals(0.0, positions[5], EPSILON);
+        }
+
+        @Test
+        @DisplayName("should use the new state after the interpolation interval")
+        void testExtrapolation() {
+            final DeadReckoningAlgorithm dr = new DeadReckoningRVW(false);
+            dr.updateKinematicState(oldState());
+            dr.updateKinematicState(newState());
+
+            final double[] timeDeltas = new double[100];
+            for(int i = 0; i < timeDeltas.length; i++) {
+                timeDeltas[i] = 1.0 + i * 0.1;
+            }
+            final double[] positions = new double[3*timeDeltas.length];
+            dr.getDeadReckonedPositions(timeDeltas, positions);
+
+            for(int i = 0; i < timeDeltas.length; i++) {
+                final double t = timeDeltas[i];
+                assertEquals(5.0 + 20.0*t, positions[i*3], EPSILON);
+                assertEquals(0.5*2.0*t*t, positions[i*3+1], EPSILON);
+                assertEquals(0.0, positions[i*3+2], EPSILON);
+            }
+        }
+
+        @Test
+        @DisplayName("acceleration decay should bring the entity to a halt")
+        void testAccelerationDecay() {
+            final DeadReckoningAlgorithm dr = new DeadReckoningRVW(true);
+            dr.updateKinematicState(oldState());
+            dr.updateKinematicState(newState());
+
+            final double[] positions = new double[9];
+            dr.getDeadReckonedPositions(new double[] {2.5, 5.0, 60.0}, positions);
+
+            // halfway through the decay interval, decayed time = 5*sin(pi/2 * 2.5/5)
+            assertEquals(5.0 + 20.0*5.0*Math.sin(Math.PI/4.0), positions[0], EPSILON);
+
+            // decayed time stops at the decay interval once it is over
+            assertEquals(5.0 + 20.0*5.0, positions[3], EPSILON);
+            assertArrayEquals(new double[] {positions[3], positions[4], positions[5]},
+                              new double[] {positions[6], positions[7], positions[8]}, EPSILON);
+        }
+
+        @Test
+        @DisplayName("predicted positions should be offset from the current time")
+        void testPredictedPositions() {
+            final DeadReckoningAlgorithm dr = new DeadReckoningRVW(false);
+            dr.updateKinematicState(oldState());
+            dr.updateKinematicState(newState());
+
+            final double[] positions = new double[6];
+            dr.getPredictedPositions(new double[] {0.0, 2.0}, positions);
+            final double[] current = dr.getCurrentDeadReckonedState().getLocation();
+
+            // some time has passed since the update, but far less than the 1s interpolation interval
+            assertTrue(positions[0] >= 0.0 && positions[0] <= current[0]);
+            assertTrue(positions[3] >= 5.0 + 20.0*2.0 && positions[3] <= 5.0 + 20.0*2.5);
+
+            // the offsets are resolved against a single clock reading
+            final double[] sinceUpdate = new double[3];
+            dr.getDeadReckonedPositions(new double[] {(positions[3] - 5.0) / 20.0}, sinceUpdate);
+            assertEquals(positions[3], sinceUpdate[0], EPSILON);
+        }
+
+        @Test
+        @DisplayName("should write zeros before the first kinematic state update")
+        void testNoState() {
+            for(DeadReckoningAlgorithm dr : new DeadReckoningAlgorithm[] {new DeadReckoningRVW(), new DeadReckoningRVWCM(), new DeadReckoningRVB()}) {
+                final double[] positions = new double[] {1.0, 1.0, 1.0};
+                dr.getDeadReckonedPositions(new double[] {1.0}, positions);
+                assertArrayEquals(new double[] {0.0, 0.0, 0.0}, positions, EPSILON);
+
+                final double[] predicted = new double[] {1.0, 1.0, 1.0};
+                dr.getPredictedPositions(new double[] {1.0}, predicted);
+                assertArrayEquals(new double[] {0.0, 0.0, 0.0}, predicted, EPSILON);
+            }
+        }
+
+        @Test
+        @DisplayName("should reject a positions array that is too small")
+        void testArrayTooSmall() {
+            final DeadReckoningAlgorithm dr = new DeadReckoningRVWCM();
+            assertThrows(IllegalArgumentException.class,
+                         () -> dr.getDeadReckonedPositions(new double[] {1.0, 2.0}, new double[5]));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.hmorgan.deadreckoning;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadReckoningFrameCacheTest {
+
+    private FrameClock frameClock;
+    private DeadReckoningFrameCache dr;
+
+    @BeforeEach
+    void setUp() {
+        frameClock = new FrameClock();
+        dr = new DeadReckoningFrameCache(new DeadReckoningRVWCM(), frameClock);
+        dr.updateKinematicState(new EntityState(new double[] {1.0, 2.0, 3.0},
+                                                new double[] {0.0, 0.0, 0.0},
+                                                new double[] {10.0, 0.0, 0.0},
+                                                new double[] {0.0, 0.0, 0.0},
+                                                new double[] {0.0, 0.0, 0.0}));
+    }
+
+    @Test
+    @DisplayName("readers in the same frame should share the cached state")
+    void testSameFrame() {
+        final EntityState first = dr.getCurrentDeadReckonedState();
+        assertSame(first, dr.getCurrentDeadReckonedState());
+        assertSame(first, dr.getCurrentDeadReckonedState());
+    }
+
+    @Test
+    @DisplayName("advancing the frame clock should invalidate the cached state")
+    void testFrameAdvance() {
+        final EntityState first = dr.getCurrentDeadReckonedState();
+        frameClock.advance();
+        final EntityState second = dr.getCurrentDeadReckonedState();
+        assertNotSame(first, second);
+        assertSame(second, dr.getCurrentDeadReckonedState());
+    }
+
+    @Test
+    @DisplayName("a kinematic state update should invalidate the cached state")
+    void testUpdate() {
+        final EntityState first = dr.getCurrentDeadReckonedState();
+        dr.updateKinematicState(new EntityState(new double[] {100.0, 200.0, 300.0},
+                                                new double[] {0.0, 0.0, 0.0},
+                                                new double[] {10.0, 0.0, 0.0},
+                                                new double[] {0.0, 0.0, 0.0},
+                                                new double[] {0.0, 0.0, 0.0}));
+        final EntityState second = dr.getCurrentDeadReckonedState();
+        assertNotSame(first, second);
+    }
+}
@@ -0,0 +1,127 @@
+package org.hmorgan.deadreckoning;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStateTest {
+
+    private static final double ANGLE_EPSILON = 1.0e-11;   // radians
+    private static final double EPSILON = 1.0e-6;
+
+    private static EntityState aeronautical(double latDegrees, double lonDegrees, double alt) {
+        return new EntityState(new double[] {Math.toRadians(latDegrees), Math.toRadians(lonDegrees), alt},
+                               new double[] {0.1, -0.05, 2.0},
+                               new double[] {150.0, -20.0, 5.0},
+                               new double[] {0.5, 3.0, -1.0},
+                               new double[] {0.01, 0.02, 0.05});
+    }
+
+    private static EntityState fromAeronauticalFrame(EntityState state) {
+        return EntityState.fromAeronauticalFrame(state.getLocation(),
+                                                 state.getOrientation(),
+                                                 state.getLinearVelocity(),
+                                                 state.getLinearAcceleration(),
+                                                 state.getAngularVelocity());
+    }
+
+    private static void assertAeronauticalEquals(EntityState expected, EntityState actual, double angleEpsilon, double epsilon) {
+        assertEquals(expected.getLocation()[0], actual.getLocation()[0], angleEpsilon);
+        assertEquals(expected.getLocation()[1], actual.getLocation()[1], angleEpsilon);
+        assertEquals(expected.getLocation()[2], actual.getLocation()[2], 1.0e-4);
+        assertArrayEquals(expected.getOrientation(), actual.getOrientation(), epsilon);
+        assertArrayEquals(expected.getLinearVelocity(), actual.getLinearVelocity(), epsilon);
+        assertArrayEquals(expected.getLinearAcceleration(), actual.getLinearAcceleration(), epsilon);
+        assertArrayEquals(expected.getAngularVelocity(), actual.getAngularVelocity(), epsilon);
+    }
+
+    @Nested
+    @DisplayName("test fromAeronauticalFrame")
+    class TestFromAeronauticalFrame {
+        @Test
+        @DisplayName("north velocity should point along the local north vector")
+        void testNorthVelocity() {
+            final double lat = 0.6;
+            final double lon = -2.0;
+            final EntityState state = EntityState.fromAeronauticalFrame(new double[] {lat, lon, 0.0},
+                                                                        new double[] {0.0, 0.0, 0.0},
+                                                                        new double[] {1.0, 0.0, 0.0},
+                                                                        new double[] {0.0, 0.0, 0.0},
+                                                                        new double[] {0.0, 0.0, 0.0});
+            assertArrayEquals(new double[] {-Math.sin(lat)*Math.cos(lon), -Math.sin(lat)*Math.sin(lon), Math.cos(lat)},
+                              state.getLinearVelocity(), EPSILON);
+        }
+    }
+
+    @Nested
+    @DisplayName("test toAeronauticalFrame")
+    class TestToAeronauticalFrame {
+        @Test
+        @DisplayName("should round trip fromAeronauticalFrame")
+        void testRoundTrip() {
+            final EntityState[] states = {
+                    aeronautical(0.0, 0.0, 0.0),
+                    aeronautical(35.5, -117.25, 10000.0),
+                    aeronautical(-33.9, 151.2, -100.0),
+                    aeronautical(-89.9, 45.0, 2000.0),
+                    aeronautical(12.0, 100.0, 400000.0)
+            };
+
+            for(EntityState expected : states) {
+                assertAeronauticalEquals(expected, fromAeronauticalFrame(expected).toAeronauticalFrame(), ANGLE_EPSILON, EPSILON);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("test AeronauticalFrameConverter")
+    class TestAeronauticalFrameConverter {
+        @Test
+        @DisplayName("incremental conversion should match the full conversion along a path")
+        void testPath() {
+            final AeronauticalFrameConverter converter = new AeronauticalFrameConverter();
+
+            // small steps (within the rotation tolerance) mixed with larger jumps
+            for(int i = 0; i < 200; i++) {
+                final double step = i % 50 == 0 ? 1.0e-3 : 1.0e-8;
+                final EntityState expected = aeronautical(35.5 + i*step, -117.25 - i*step, 10000.0 + i*0.1);
+                final EntityState ecef = fromAeronauticalFrame(expected);
+
+                // reusing the anchor's NED frame rotates vectors by at most tolerance / earth radius
+                assertAeronauticalEquals(expected, converter.toAeronauticalFrame(ecef), ANGLE_EPSILON, 1.0e-4);
+                assertAeronauticalEquals(ecef.toAeronauticalFrame(), converter.toAeronauticalFrame(ecef), ANGLE_EPSILON, 1.0e-4);
+            }
+        }
+
+        @Test
+        @DisplayName("incremental conversion should wrap longitude across the antimeridian")
+        void testAntimeridian() {
+            final AeronauticalFrameConverter converter = new AeronauticalFrameConverter();
+
+            // anchor just east of the antimeridian, then step west across it by about 5 cm at a time
+            for(int i = 0; i < 10; i++) {
+                final double lon = Math.PI - 2.0e-8 + i*5.0e-9;
+                final EntityState expected = new EntityState(new double[] {0.0, lon > Math.PI ? lon - 2.0*Math.PI : lon, 100.0},
+                                                             new double[] {0.1, -0.05, 2.0},
+                                                             new double[] {150.0, -20.0, 5.0},
+                                                             new double[] {0.5, 3.0, -1.0},
+                                                             new double[] {0.01, 0.02, 0.05});
+                final EntityState ecef = fromAeronauticalFrame(expected);
+                final EntityState actual = converter.toAeronauticalFrame(ecef);
+
+                assertTrue(actual.getLocation()[1] > -Math.PI && actual.getLocation()[1] <= Math.PI);
+                assertAeronauticalEquals(ecef.toAeronauticalFrame(), actual, ANGLE_EPSILON, 1.0e-4);
+            }
+        }
+
+        @Test
+        @DisplayName("zero tolerance should always solve the geodetic position")
+        void testZeroTolerance() {
+            final AeronauticalFrameConverter converter = new AeronauticalFrameConverter(0.0);
+            final EntityState first = aeronautical(51.5, -0.1, 35.0);
+            final EntityState second = aeronautical(51.6, -0.2, 40.0);
+            assertAeronauticalEquals(first, converter.toAeronauticalFrame(fromAeronauticalFrame(first)), ANGLE_EPSILON, EPSILON);
+            assertAeronauticalEquals(second, converter.toAeronauticalFrame(fromAeronauticalFrame(second)), ANGLE_EPSILON, EPSILON);
+        }
+    }
+}
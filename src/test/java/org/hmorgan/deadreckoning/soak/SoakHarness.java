@@ -0,0 +1,377 @@
+package org.hmorgan.deadreckoning.soak;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.hmorgan.deadreckoning.DeadReckoningAlgorithm;
+import org.hmorgan.deadreckoning.DeadReckoningFrameCache;
+import org.hmorgan.deadreckoning.DeadReckoningRVW;
+import org.hmorgan.deadreckoning.DeadReckoningRVWCM;
+import org.hmorgan.deadreckoning.EntityState;
+import org.hmorgan.deadreckoning.FrameClock;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Soak test harness that drives a synthetic entity population through the dead reckoning algorithms in real time.
+ *
+ * Every frame, each entity whose update is due reports a new kinematic state, then every entity is dead reckoned
+ * with {@link DeadReckoningAlgorithm#getCurrentDeadReckonedState()}. Prediction error is sampled with
+ * {@link DeadReckoningAlgorithm#getDeadReckonedPositions} at the sim time since the entity's last update, so it only
+ * measures the algorithm and not the harness's scheduling, and compared against ground truth. At the end
+ * of the run the harness reports throughput, per-frame latency percentiles, allocation rate, GC pauses and
+ * prediction error per motion type. Throughput, frame latency and allocation only cover the calls into the library;
+ * building the synthetic state updates, sampling ground truth and accumulating the prediction error happen outside
+ * of the timed sections.
+ *
+ * Configuration is read from system properties (see {@link Config}). Run it with {@code mvn -Psoak verify}, e.g.
+ * {@code mvn -Psoak verify -Dsoak.entities=50000 -Dsoak.duration=600}. The process exits with status 1 when one
+ * of the optional {@code soak.max*} thresholds is exceeded.
+ *
+ * @author Hunter N. Morgan
+ */
+public class SoakHarness {
+
+    /**
+     * Soak run configuration
+     */
+    public static class Config {
+        int entities = Integer.getInteger("soak.entities", 10000);
+        double duration = doubleProperty("soak.duration", 60.0);              // s
+        double frameRate = doubleProperty("soak.frameRate", 60.0);            // Hz
+        double updateRate = doubleProperty("soak.updateRate", 5.0);           // Hz per entity
+        double reportInterval = doubleProperty("soak.reportInterval", 10.0);  // s, 0 disables progress reports
+        String algorithm = System.getProperty("soak.algorithm", "RVWCM");     // RVW or RVWCM
+        boolean accelerationDecay = Boolean.parseBoolean(System.getProperty("soak.accelerationDecay", "true"));
+        long seed = Long.getLong("soak.seed", 1L);
+        int readers = Integer.getInteger("soak.readers", 1);                  // dead reckoned state reads per entity per frame
+        boolean frameCache = Boolean.parseBoolean(System.getProperty("soak.frameCache", "false"));
+
+        // optional pass/fail thresholds, NaN disables the check
+        double maxFrameP99Millis = doubleProperty("soak.maxFrameP99Millis", Double.NaN);
+        double maxGcPauseMillis = doubleProperty("soak.maxGcPauseMillis", Double.NaN);
+        double maxBytesPerExtrapolation = doubleProperty("soak.maxBytesPerExtrapolation", Double.NaN);
+
+        DeadReckoningAlgorithm createAlgorithm(FrameClock frameClock) {
+            final DeadReckoningAlgorithm dr;
+            switch(algorithm) {
+                case "RVW":
+                    dr = new DeadReckoningRVW(accelerationDecay);
+                    break;
+                case "RVWCM":
+                    dr = new DeadReckoningRVWCM();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown dead reckoning algorithm: " + algorithm);
+            }
+            return frameCache ? new DeadReckoningFrameCache(dr, frameClock) : dr;
+        }
+
+        private static double doubleProperty(String key, double defaultValue) {
+            final String value = System.getProperty(key);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * Results of a soak run
+     */
+    public static class Report {
+        int frames;
+        int frameOverruns;              // frames that took longer than the frame period
+        long updates;
+        long extrapolations;
+        double elapsed;                 // s
+        long updateNanos;
+        long extrapolationNanos;
+        long[] frameNanos;              // sorted per-frame update and extrapolation latency, excluding harness work
+        long updateBytes = -1;          // -1 when thread allocation accounting is unsupported
+        long extrapolationBytes = -1;
+        long gcCount;
+        double gcTotalMillis;
+        double gcMaxMillis;
+        final long[] errorSamples = new long[SyntheticEntity.Motion.values().length];
+        final double[] errorSumSq = new double[SyntheticEntity.Motion.values().length];
+        final double[] errorMax = new double[SyntheticEntity.Motion.values().length];
+
+        double framePercentileMillis(double percentile) {
+            if(frameNanos.length == 0) {
+                return 0.0;
+            }
+            final int index = (int) Math.min(frameNanos.length - 1, Math.ceil(percentile / 100.0 * frameNanos.length) - 1);
+            return frameNanos[Math.max(index, 0)] / 1e6;
+        }
+
+        double errorRms(SyntheticEntity.Motion motion) {
+            final int i = motion.ordinal();
+            return errorSamples[i] == 0 ? 0.0 : Math.sqrt(errorSumSq[i] / errorSamples[i]);
+        }
+
+        double bytesPerExtrapolation() {
+            return extrapolationBytes < 0 || extrapolations == 0 ? Double.NaN : (double) extrapolationBytes / extrapolations;
+        }
+
+        void print(Config config) {
+            System.out.println(String.format(Locale.ROOT, "=== soak report: %s%s, %d entities, %d readers, %.0f Hz frames, %.1f Hz updates, %.1f s",
+                                             config.algorithm, config.frameCache ? " (frame cached)" : "", config.entities,
+                                             config.readers, config.frameRate, config.updateRate, elapsed));
+            System.out.println(String.format(Locale.ROOT, "frames:         %d (%d overran the %.2f ms frame period)",
+                                             frames, frameOverruns, 1000.0 / config.frameRate));
+            System.out.println(String.format(Locale.ROOT, "throughput:     %.0f extrapolations/s, %.0f updates/s",
+                                             extrapolations / (extrapolationNanos / 1e9), updates / (updateNanos / 1e9)));
+            System.out.println(String.format(Locale.ROOT, "frame latency:  p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                                             framePercentileMillis(50), framePercentileMillis(90), framePercentileMillis(99),
+                                             framePercentileMillis(99.9), framePercentileMillis(100)));
+            if(extrapolationBytes >= 0) {
+                System.out.println(String.format(Locale.ROOT, "allocation:     %.1f MB/s, %.1f B/extrapolation, %.1f B/update",
+                                                 (updateBytes + extrapolationBytes) / elapsed / 1e6,
+                                                 bytesPerExtrapolation(),
+                                                 updates == 0 ? 0.0 : (double) updateBytes / updates));
+            } else {
+                System.out.println("allocation:     unsupported by this JVM");
+            }
+            System.out.println(String.format(Locale.ROOT, "gc pauses:      %d, total %.1f ms, max %.1f ms",
+                                             gcCount, gcTotalMillis, gcMaxMillis));
+            for(SyntheticEntity.Motion motion : SyntheticEntity.Motion.values()) {
+                System.out.println(String.format(Locale.ROOT, "error %-16s rms %.3f m, max %.3f m",
+                                                 motion, errorRms(motion), errorMax[motion.ordinal()]));
+            }
+        }
+
+        List<String> thresholdViolations(Config config) {
+            final List<String> violations = new ArrayList<>();
+            if(framePercentileMillis(99) > config.maxFrameP99Millis) {
+                violations.add(String.format(Locale.ROOT, "frame latency p99 %.3f ms > %.3f ms",
+                                             framePercentileMillis(99), config.maxFrameP99Millis));
+            }
+            if(gcMaxMillis > config.maxGcPauseMillis) {
+                violations.add(String.format(Locale.ROOT, "max gc pause %.1f ms > %.1f ms",
+                                             gcMaxMillis, config.maxGcPauseMillis));
+            }
+            if(bytesPerExtrapolation() > config.maxBytesPerExtrapolation) {
+                violations.add(String.format(Locale.ROOT, "allocation %.1f B/extrapolation > %.1f B/extrapolation",
+                                             bytesPerExtrapolation(), config.maxBytesPerExtrapolation));
+            }
+            return violations;
+        }
+    }
+
+    /**
+     * Records GC pause durations reported through GC notifications
+     */
+    private static class GcMonitor implements NotificationListener {
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private long count;
+        private double totalMillis;
+        private double maxMillis;
+
+        void start() {
+            for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if(gc instanceof NotificationEmitter) {
+                    final NotificationEmitter emitter = (NotificationEmitter) gc;
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        void stop(Report report) {
+            for(NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch(Exception e) {
+                    // listener already removed
+                }
+            }
+            synchronized(this) {
+                report.gcCount = count;
+                report.gcTotalMillis = totalMillis;
+                report.gcMaxMillis = maxMillis;
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if(!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            final GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            final double millis = info.getGcInfo().getDuration();
+            synchronized(this) {
+                count++;
+                totalMillis += millis;
+                maxMillis = Math.max(maxMillis, millis);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        final Config config = new Config();
+        final Report report = run(config);
+        report.print(config);
+
+        final List<String> violations = report.thresholdViolations(config);
+        for(String violation : violations) {
+            System.err.println("THRESHOLD EXCEEDED: " + violation);
+        }
+        if(!violations.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the soak test with the given configuration, blocking for its duration
+     *
+     * @param config soak run configuration
+     * @return results of the run
+     */
+    public static Report run(Config config) {
+        final SyntheticEntity[] entities = SyntheticEntity.createPopulation(config.entities, config.seed);
+        final FrameClock frameClock = new FrameClock();
+        final DeadReckoningAlgorithm[] algorithms = new DeadReckoningAlgorithm[entities.length];
+        final double[] nextUpdate = new double[entities.length];
+        final boolean[] updated = new boolean[entities.length];
+        final double[] lastUpdateTime = new double[entities.length];     // sim time of each entity's last update (s)
+        final EntityState[] pendingUpdates = new EntityState[entities.length];
+        final double updatePeriod = 1.0 / config.updateRate;
+        for(int i = 0; i < entities.length; i++) {
+            algorithms[i] = config.createAlgorithm(frameClock);
+            // stagger updates evenly across the update period
+            nextUpdate[i] = updatePeriod * i / entities.length;
+        }
+
+        final Random noise = new Random(config.seed);
+        final double[] truth = new double[3];
+        final double[] errorTimeDelta = new double[1];
+        final double[] location = new double[3];
+        final long framePeriodNanos = (long) (1e9 / config.frameRate);
+        final int frames = (int) (config.duration * config.frameRate);
+
+        final Report report = new Report();
+        report.frameNanos = new long[frames];
+
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        final long threadId = Thread.currentThread().getId();
+        if(allocations != null) {
+            report.updateBytes = 0;
+            report.extrapolationBytes = 0;
+        }
+
+        final GcMonitor gcMonitor = new GcMonitor();
+        gcMonitor.start();
+
+        final long start = System.nanoTime();
+        long nextProgressReport = (long) (config.reportInterval * 1e9);
+
+        for(int frame = 0; frame < frames; frame++) {
+            final long frameStart = start + frame * framePeriodNanos;
+            long now;
+            while((now = System.nanoTime()) < frameStart) {
+                LockSupport.parkNanos(frameStart - now);
+            }
+            final double simTime = (now - start) / 1e9;
+            frameClock.advance();
+
+            // build the kinematic state updates that are due this frame
+            for(int i = 0; i < entities.length; i++) {
+                if(simTime >= nextUpdate[i]) {
+                    pendingUpdates[i] = entities[i].reportState(simTime, noise);
+                    lastUpdateTime[i] = simTime;
+                    nextUpdate[i] += updatePeriod;
+                }
+            }
+
+            // apply them, only this loop counts towards update time and allocation
+            long bytesBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+            final long updateStart = System.nanoTime();
+            for(int i = 0; i < entities.length; i++) {
+                final EntityState update = pendingUpdates[i];
+                if(update != null) {
+                    algorithms[i].updateKinematicState(update);
+                }
+            }
+            final long updateEnd = System.nanoTime();
+            if(allocations != null) {
+                report.updateBytes += allocations.getThreadAllocatedBytes(threadId) - bytesBefore;
+            }
+
+            for(int i = 0; i < entities.length; i++) {
+                if(pendingUpdates[i] != null) {
+                    pendingUpdates[i] = null;
+                    updated[i] = true;
+                    report.updates++;
+                }
+            }
+
+            // dead reckon every entity, only this loop counts towards extrapolation time and allocation
+            bytesBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+            final long extrapolationStart = System.nanoTime();
+            for(int i = 0; i < entities.length; i++) {
+                // first reader plus additional readers, e.g. sensor models or network relays looking at the same entity
+                for(int reader = 0; reader < config.readers; reader++) {
+                    algorithms[i].getCurrentDeadReckonedState();
+                }
+            }
+            final long extrapolationEnd = System.nanoTime();
+            if(allocations != null) {
+                report.extrapolationBytes += allocations.getThreadAllocatedBytes(threadId) - bytesBefore;
+            }
+
+            // prediction error against ground truth, dead reckoned on the harness's sim time clock rather than the
+            // algorithms' own millisecond clock so scheduling skew between entities doesn't count as error
+            for(int i = 0; i < entities.length; i++) {
+                if(!updated[i]) {
+                    // nothing to compare against until the first kinematic state update
+                    continue;
+                }
+                entities[i].truePosition(simTime, truth);
+                errorTimeDelta[0] = simTime - lastUpdateTime[i];
+                algorithms[i].getDeadReckonedPositions(errorTimeDelta, location);
+                final double dx = location[0] - truth[0];
+                final double dy = location[1] - truth[1];
+                final double dz = location[2] - truth[2];
+                final double errorSq = dx*dx + dy*dy + dz*dz;
+                final int motion = entities[i].getMotion().ordinal();
+                report.errorSamples[motion]++;
+                report.errorSumSq[motion] += errorSq;
+                report.errorMax[motion] = Math.max(report.errorMax[motion], Math.sqrt(errorSq));
+            }
+            final long frameEnd = System.nanoTime();
+
+            report.extrapolations += (long) entities.length * config.readers;
+            report.updateNanos += updateEnd - updateStart;
+            report.extrapolationNanos += extrapolationEnd - extrapolationStart;
+            report.frameNanos[frame] = (updateEnd - updateStart) + (extrapolationEnd - extrapolationStart);
+            if(frameEnd - frameStart > framePeriodNanos) {
+                report.frameOverruns++;
+            }
+            report.frames++;
+
+            if(config.reportInterval > 0 && frameEnd - start >= nextProgressReport) {
+                nextProgressReport += (long) (config.reportInterval * 1e9);
+                System.out.println(String.format(Locale.ROOT, "%.0f s: %d frames, %d overruns, %.0f extrapolations/s",
+                                                 simTime, report.frames, report.frameOverruns,
+                                                 report.extrapolations / (report.extrapolationNanos / 1e9)));
+            }
+        }
+
+        report.elapsed = (System.nanoTime() - start) / 1e9;
+        gcMonitor.stop(report);
+        Arrays.sort(report.frameNanos);
+        return report;
+    }
+}
@@ -0,0 +1,37 @@
+package org.hmorgan.deadreckoning.soak;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoakHarnessTest {
+
+    @Test
+    @DisplayName("short soak run should report every frame and bounded prediction error")
+    void testShortRun() {
+        // set every field, surefire forwards -Dsoak.* properties meant for the soak profile to this JVM too
+        final SoakHarness.Config config = new SoakHarness.Config();
+        config.entities = 200;
+        config.duration = 1.0;
+        config.frameRate = 30.0;
+        config.updateRate = 5.0;
+        config.reportInterval = 0.0;
+        config.algorithm = "RVWCM";
+        config.accelerationDecay = true;
+        config.seed = 1L;
+        config.readers = 1;
+        config.frameCache = false;
+        config.maxFrameP99Millis = Double.NaN;
+        config.maxGcPauseMillis = Double.NaN;
+        config.maxBytesPerExtrapolation = Double.NaN;
+
+        final SoakHarness.Report report = SoakHarness.run(config);
+
+        assertEquals(30, report.frames);
+        assertEquals(200L * 30, report.extrapolations);
+        assertTrue(report.updates >= 200);
+        for(SyntheticEntity.Motion motion : SyntheticEntity.Motion.values()) {
+            assertTrue(report.errorRms(motion) < 100.0, motion + " rms error " + report.errorRms(motion));
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.hmorgan.deadreckoning.soak;
+
+import org.hmorgan.deadreckoning.EntityState;
+import org.hmorgan.deadreckoning.util.Geodetic;
+
+import java.util.Random;
+
+/**
+ * Synthetic entity whose ground truth motion is known analytically at any point in time.
+ *
+ * Motion is modelled in a local NED tangent plane about an origin (latitude, longitude, altitude) and converted to
+ * WGS84/ECEF when reported. Kinematic state updates are built via {@link EntityState#fromAeronauticalFrame}, the same
+ * way an application receiving aeronautical data would.
+ *
+ * @author Hunter N. Morgan
+ */
+public class SyntheticEntity {
+
+    /**
+     * Types of synthetic motion
+     */
+    public enum Motion {
+        /** constant velocity */
+        STRAIGHT,
+        /** projectile under gravity that bounces back up when it reaches its launch altitude */
+        BALLISTIC,
+        /** constant speed, constant turn rate level turn banked for zero sideslip */
+        COORDINATED_TURN,
+        /** ground vehicle weaving around a straight course with noisy position and velocity reports */
+        JITTERY_GROUND
+    }
+
+    private static final double GRAVITY = 9.80665;
+
+    private final Motion motion;
+    private final double originLat;   // radians
+    private final double originLon;   // radians
+    private final double originAlt;   // m
+    private final double meridionalRadius;  // M + h at the origin (m)
+    private final double parallelRadius;    // (N + h) * cos(lat) at the origin (m)
+
+    private final double[] velocity = new double[3];       // base NED velocity (m/s)
+    private final double speed;                            // horizontal speed (m/s)
+    private final double heading;                          // initial heading (radians)
+    private final double turnRate;                         // radians/s
+    private final double climbRate;                        // initial up velocity of each bounce (m/s)
+    private final double[] jitterAmplitude = new double[4]; // m, {north1, north2, east1, east2}
+    private final double[] jitterFrequency = new double[4]; // radians/s
+    private final double[] jitterPhase = new double[4];     // radians
+
+    private final double positionNoise;  // reported position noise standard deviation (m)
+    private final double velocityNoise;  // reported velocity noise standard deviation (m/s)
+
+    // scratch buffers so truth sampling does not allocate
+    private final double[] ned = new double[3];
+    private final double[] velNed = new double[3];
+    private final double[] accNed = new double[3];
+
+    private SyntheticEntity(Motion motion, Random random) {
+        this.motion = motion;
+        // spread entities over roughly a 2x2 degree box
+        originLat = Math.toRadians(35.0 + 2.0*random.nextDouble());
+        originLon = Math.toRadians(-117.0 + 2.0*random.nextDouble());
+        heading = 2.0*Math.PI*random.nextDouble();
+
+        switch(motion) {
+            case STRAIGHT:
+                originAlt = 1000.0 + 9000.0*random.nextDouble();
+                speed = 100.0 + 150.0*random.nextDouble();
+                turnRate = 0.0;
+                climbRate = 0.0;
+                positionNoise = 0.0;
+                velocityNoise = 0.0;
+                break;
+            case BALLISTIC:
+                originAlt = 100.0*random.nextDouble();
+                speed = 50.0 + 250.0*random.nextDouble();
+                turnRate = 0.0;
+                climbRate = 50.0 + 150.0*random.nextDouble();
+                positionNoise = 0.0;
+                velocityNoise = 0.0;
+                break;
+            case COORDINATED_TURN:
+                originAlt = 1000.0 + 9000.0*random.nextDouble();
+                speed = 80.0 + 170.0*random.nextDouble();
+                turnRate = Math.toRadians(1.5 + 4.5*random.nextDouble()) * (random.nextBoolean() ? 1.0 : -1.0);
+                climbRate = 0.0;
+                positionNoise = 0.0;
+                velocityNoise = 0.0;
+                break;
+            case JITTERY_GROUND:
+            default:
+                originAlt = 0.0;
+                speed = 2.0 + 18.0*random.nextDouble();
+                turnRate = 0.0;
+                climbRate = 0.0;
+                positionNoise = 0.5;
+                velocityNoise = 0.2;
+                for(int i = 0; i < 4; i++) {
+                    jitterAmplitude[i] = 0.5 + 4.5*random.nextDouble();
+                    jitterFrequency[i] = 0.1 + 1.9*random.nextDouble();
+                    jitterPhase[i] = 2.0*Math.PI*random.nextDouble();
+                }
+                break;
+        }
+
+        // meridional and prime vertical radii of curvature at the origin
+        final double sinOriginLat = Math.sin(originLat);
+        final double w = Math.sqrt(1.0 - Geodetic.E2*sinOriginLat*sinOriginLat);
+        meridionalRadius = Geodetic.A * (1.0 - Geodetic.E2) / (w*w*w) + originAlt;
+        parallelRadius = (Geodetic.A / w + originAlt) * Math.cos(originLat);
+
+        velocity[0] = speed*Math.cos(heading);
+        velocity[1] = speed*Math.sin(heading);
+        velocity[2] = 0.0;
+    }
+
+    /**
+     * Creates a population of entities evenly split across all {@link Motion} types
+     *
+     * @param count number of entities
+     * @param seed random seed, the same seed always produces the same population
+     * @return the entities
+     */
+    public static SyntheticEntity[] createPopulation(int count, long seed) {
+        final Random random = new Random(seed);
+        final Motion[] motions = Motion.values();
+        final SyntheticEntity[] entities = new SyntheticEntity[count];
+        for(int i = 0; i < count; i++) {
+            entities[i] = new SyntheticEntity(motions[i % motions.length], random);
+        }
+        return entities;
+    }
+
+    public Motion getMotion() {
+        return motion;
+    }
+
+    /**
+     * Builds the kinematic state update an entity would report at time t
+     *
+     * @param t time since the start of the run (s)
+     * @param noise random source for measurement noise
+     * @return new {@link EntityState} in ECEF frame
+     */
+    public EntityState reportState(double t, Random noise) {
+        sampleNed(t);
+
+        final double[] latLonAlt = new double[3];
+        nedToLatLonAlt(ned, latLonAlt);
+        if(positionNoise > 0.0) {
+            latLonAlt[0] += positionNoise*noise.nextGaussian() / meridionalRadius;
+            latLonAlt[1] += positionNoise*noise.nextGaussian() / parallelRadius;
+        }
+
+        final double[] linearVelocityNed = new double[] {velNed[0], velNed[1], velNed[2]};
+        if(velocityNoise > 0.0) {
+            linearVelocityNed[0] += velocityNoise*noise.nextGaussian();
+            linearVelocityNed[1] += velocityNoise*noise.nextGaussian();
+        }
+
+        // attitude follows the velocity vector, banked for a coordinated turn when airborne
+        final double horizontalSpeedSq = velNed[0]*velNed[0] + velNed[1]*velNed[1];
+        final double yawRate = horizontalSpeedSq > 0.0 ? (velNed[0]*accNed[1] - velNed[1]*accNed[0]) / horizontalSpeedSq : 0.0;
+        final double yaw = Math.atan2(velNed[1], velNed[0]);
+        final double pitch = Math.atan2(-velNed[2], Math.sqrt(horizontalSpeedSq));
+        final double roll = motion == Motion.JITTERY_GROUND ? 0.0 : Math.atan(Math.sqrt(horizontalSpeedSq)*yawRate / GRAVITY);
+        final double[] orientationNed = new double[] {roll, pitch, yaw};
+
+        final double[] linearAccelerationBody = nedToBody(roll, pitch, yaw, accNed);
+        final double[] angularVelocityBody = nedToBody(roll, pitch, yaw, new double[] {0.0, 0.0, yawRate});
+
+        return EntityState.fromAeronauticalFrame(latLonAlt,
+                                                 orientationNed,
+                                                 linearVelocityNed,
+                                                 linearAccelerationBody,
+                                                 angularVelocityBody);
+    }
+
+    /**
+     * Calculates the true ECEF position of this entity at time t without allocating
+     *
+     * @param t time since the start of the run (s)
+     * @param ecef destination array for the ECEF position (x,y,z) (m)
+     */
+    public void truePosition(double t, double[] ecef) {
+        sampleNed(t);
+        nedToLatLonAlt(ned, ecef);
+        Geodetic.geodeticToEcef(ecef[0], ecef[1], ecef[2], ecef, 0);
+    }
+
+    /**
+     * Samples the NED position, velocity and acceleration at time t into the scratch buffers
+     */
+    private void sampleNed(double t) {
+        switch(motion) {
+            case STRAIGHT:
+                for(int i = 0; i < 3; i++) {
+                    ned[i] = velocity[i]*t;
+                    velNed[i] = velocity[i];
+                    accNed[i] = 0.0;
+                }
+                break;
+            case BALLISTIC: {
+                final double bouncePeriod = 2.0*climbRate / GRAVITY;
+                final double tau = t % bouncePeriod;
+                ned[0] = velocity[0]*t;
+                ned[1] = velocity[1]*t;
+                ned[2] = -(climbRate*tau - 0.5*GRAVITY*tau*tau);
+                velNed[0] = velocity[0];
+                velNed[1] = velocity[1];
+                velNed[2] = -climbRate + GRAVITY*tau;
+                accNed[0] = 0.0;
+                accNed[1] = 0.0;
+                accNed[2] = GRAVITY;
+                break;
+            }
+            case COORDINATED_TURN: {
+                final double radius = speed / turnRate;
+                final double psi = heading + turnRate*t;
+                final double sinPsi = Math.sin(psi);
+                final double cosPsi = Math.cos(psi);
+                ned[0] = radius*(sinPsi - Math.sin(heading));
+                ned[1] = radius*(Math.cos(heading) - cosPsi);
+                ned[2] = 0.0;
+                velNed[0] = speed*cosPsi;
+                velNed[1] = speed*sinPsi;
+                velNed[2] = 0.0;
+                accNed[0] = -speed*turnRate*sinPsi;
+                accNed[1] = speed*turnRate*cosPsi;
+                accNed[2] = 0.0;
+                break;
+            }
+            case JITTERY_GROUND:
+            default:
+                ned[0] = velocity[0]*t;
+                ned[1] = velocity[1]*t;
+                ned[2] = 0.0;
+                velNed[0] = velocity[0];
+                velNed[1] = velocity[1];
+                velNed[2] = 0.0;
+                accNed[0] = 0.0;
+                accNed[1] = 0.0;
+                accNed[2] = 0.0;
+                for(int i = 0; i < 4; i++) {
+                    final int axis = i / 2;
+                    final double a = jitterAmplitude[i];
+                    final double w = jitterFrequency[i];
+                    final double phase = w*t + jitterPhase[i];
+                    ned[axis] += a*Math.sin(phase);
+                    velNed[axis] += a*w*Math.cos(phase);
+                    accNed[axis] -= a*w*w*Math.sin(phase);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Converts a NED offset from this entity's origin to WGS84 (latitude in radians, longitude in radians,
+     * altitude in m) using the tangent plane at the origin
+     */
+    private void nedToLatLonAlt(double[] offset, double[] latLonAlt) {
+        final double north = offset[0];
+        final double east = offset[1];
+        final double down = offset[2];
+        latLonAlt[0] = originLat + north / meridionalRadius;
+        latLonAlt[1] = originLon + east / parallelRadius;
+        latLonAlt[2] = originAlt - down;
+    }
+
+    /**
+     * Rotates a NED vector into the BODY frame (transpose of the BODY to NED rotation used by
+     * {@link EntityState#fromAeronauticalFrame})
+     */
+    private static double[] nedToBody(double roll, double pitch, double yaw, double[] v) {
+        final double cosR = Math.cos(roll);
+        final double sinR = Math.sin(roll);
+        final double cosP = Math.cos(pitch);
+        final double sinP = Math.sin(pitch);
+        final double cosY = Math.cos(yaw);
+        final double sinY = Math.sin(yaw);
+
+        return new double[] {
+                cosY*cosP*v[0] + sinY*cosP*v[1] - sinP*v[2],
+                (-sinY*cosR + cosY*sinP*sinR)*v[0] + (cosY*cosR + sinY*sinP*sinR)*v[1] + cosP*sinR*v[2],
+                (sinY*sinR + cosY*sinP*cosR)*v[0] + (-cosY*sinR + sinY*sinP*cosR)*v[1] + cosP*cosR*v[2]
+        };
+    }
+}
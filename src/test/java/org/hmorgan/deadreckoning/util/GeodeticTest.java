@@ -0,0 +1,110 @@
+package org.hmorgan.deadreckoning.util;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeodeticTest {
+
+    private static final double ANGLE_EPSILON = 1.0e-11;   // radians, about 0.06 mm on the ground
+    private static final double ALT_EPSILON = 1.0e-4;      // m
+
+    // (latitude in degrees, longitude in degrees, altitude in m)
+    private static final double[][] POSITIONS = {
+            {0.0, 0.0, 0.0},
+            {35.5, -117.25, 10000.0},
+            {-33.9, 151.2, -100.0},
+            {51.5, -0.1, 35.0},
+            {-89.9, 45.0, 2000.0},
+            {89.99, -179.9, 0.0},
+            {12.0, 100.0, 400000.0},
+            {-60.0, -70.0, 36000000.0}
+    };
+
+    private static void assertLatLonAlt(double[] expected, double[] actual, int offset) {
+        assertEquals(expected[0], actual[offset], ANGLE_EPSILON);
+        assertEquals(expected[1], actual[offset+1], ANGLE_EPSILON);
+        assertEquals(expected[2], actual[offset+2], ALT_EPSILON);
+    }
+
+    private static double[] toRadians(double[] latLonAltDegrees) {
+        return new double[] {Math.toRadians(latLonAltDegrees[0]), Math.toRadians(latLonAltDegrees[1]), latLonAltDegrees[2]};
+    }
+
+    @Nested
+    @DisplayName("test ecefToGeodetic")
+    class TestEcefToGeodetic {
+        @Test
+        @DisplayName("closed form should round trip geodeticToEcef")
+        void testClosedFormRoundTrip() {
+            for(double[] position : POSITIONS) {
+                final double[] expected = toRadians(position);
+                final double[] ecef = new double[3];
+                final double[] latLonAlt = new double[3];
+                Geodetic.geodeticToEcef(expected[0], expected[1], expected[2], ecef, 0);
+                Geodetic.ecefToGeodetic(ecef[0], ecef[1], ecef[2], latLonAlt, 0);
+                assertLatLonAlt(expected, latLonAlt, 0);
+            }
+        }
+
+        @Test
+        @DisplayName("warm start should round trip geodeticToEcef from a nearby latitude")
+        void testWarmStartRoundTrip() {
+            for(double[] position : POSITIONS) {
+                final double[] expected = toRadians(position);
+                final double[] ecef = new double[3];
+                final double[] latLonAlt = new double[3];
+                Geodetic.geodeticToEcef(expected[0], expected[1], expected[2], ecef, 0);
+                // about 1 km off
+                Geodetic.ecefToGeodetic(ecef[0], ecef[1], ecef[2], expected[0] + 1.5e-4, latLonAlt, 0);
+                assertLatLonAlt(expected, latLonAlt, 0);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("test batch conversions")
+    class TestBatch {
+        @Test
+        @DisplayName("batch and incremental batch should match the closed form")
+        void testBatch() {
+            final int count = POSITIONS.length;
+            final double[] ecef = new double[3*count];
+            for(int i = 0; i < count; i++) {
+                final double[] p = toRadians(POSITIONS[i]);
+                Geodetic.geodeticToEcef(p[0], p[1], p[2], ecef, i*3);
+            }
+
+            final double[] latLonAlt = new double[3*count];
+            Geodetic.ecefToGeodetic(ecef, latLonAlt, count);
+            for(int i = 0; i < count; i++) {
+                assertLatLonAlt(toRadians(POSITIONS[i]), latLonAlt, i*3);
+            }
+
+            // previous frame is unknown (NaN) for the first entity, and slightly off for the rest
+            final double[] incremental = latLonAlt.clone();
+            incremental[0] = Double.NaN;
+            for(int i = 1; i < count; i++) {
+                incremental[i*3] += 1.0e-6;
+            }
+            Geodetic.ecefToGeodeticIncremental(ecef, incremental, count);
+            for(int i = 0; i < count; i++) {
+                assertLatLonAlt(toRadians(POSITIONS[i]), incremental, i*3);
+            }
+        }
+
+        @Test
+        @DisplayName("ecefToNed should rotate the local up vector to negative down")
+        void testEcefToNed() {
+            final double[] latLonAlt = toRadians(POSITIONS[1]);
+            final double[] up = new double[] {
+                    Math.cos(latLonAlt[0]) * Math.cos(latLonAlt[1]),
+                    Math.cos(latLonAlt[0]) * Math.sin(latLonAlt[1]),
+                    Math.sin(latLonAlt[0])
+            };
+            final double[] ned = new double[3];
+            Geodetic.ecefToNed(latLonAlt, up, ned, 1);
+            assertArrayEquals(new double[] {0.0, 0.0, -1.0}, ned, 1.0e-12);
+        }
+    }
+}